@@ -0,0 +1,20 @@
+#!/bin/sh
+# Compiles the server into build/payroll.jar and records a class-data-sharing archive
+# (build/payroll.jsa) from a warmup training run. Put mysql-connector-j in lib/.
+set -e
+cd "$(dirname "$0")"
+
+rm -rf build
+mkdir -p build/classes
+javac -encoding UTF-8 -d build/classes $(find src -name '*.java')
+jar cf build/payroll.jar -C build/classes .
+
+CP=build/payroll.jar
+for j in lib/*.jar; do
+  [ -e "$j" ] && CP="$CP:$j"
+done
+
+# The archive is only used when the runtime classpath starts with the same entries, so record them.
+echo "$CP" > build/classpath
+java -XX:ArchiveClassesAtExit=build/payroll.jsa -cp "$CP" web.PayrollServer --warmup-exit
+echo "Run with: java -XX:SharedArchiveFile=build/payroll.jsa -cp $CP web.PayrollServer"
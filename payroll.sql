@@ -1,4 +1,7 @@
--- Database and table setup for Employee Payroll System
+-- Database and table setup for Employee Payroll System.
+-- Safe to run again on an existing database: missing tables are created, and tables from earlier versions are
+-- brought up to date. MySQL has no ADD COLUMN IF NOT EXISTS, so each upgrade checks information_schema and runs
+-- either the ALTER or a no-op through a prepared statement.
 CREATE DATABASE IF NOT EXISTS payroll;
 USE payroll;
 
@@ -11,5 +14,83 @@ CREATE TABLE IF NOT EXISTS employee (
   da DECIMAL(12,2) NOT NULL,
   deductions DECIMAL(12,2) NOT NULL,
   created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+  updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  -- Employees are soft-deleted so their salary history still feeds payroll reruns for past periods.
+  deleted_at TIMESTAMP NULL DEFAULT NULL,
+  INDEX idx_employee_designation (designation)
 );
+
+-- Upgrade: employee tables created before soft deletes.
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'employee' AND COLUMN_NAME = 'deleted_at') = 0,
+              'ALTER TABLE employee ADD COLUMN deleted_at TIMESTAMP NULL DEFAULT NULL',
+              'DO 0');
+PREPARE upgrade FROM @ddl; EXECUTE upgrade; DEALLOCATE PREPARE upgrade;
+
+-- Upgrade: employee tables created before the designation summary.
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'employee' AND INDEX_NAME = 'idx_employee_designation') = 0,
+              'ALTER TABLE employee ADD INDEX idx_employee_designation (designation)',
+              'DO 0');
+PREPARE upgrade FROM @ddl; EXECUTE upgrade; DEALLOCATE PREPARE upgrade;
+
+-- Append-only salary history. A row applies from effective_from until the next revision for the same employee;
+-- of several revisions on the same date, the highest revision_id wins. The primary key doubles as the index for
+-- as-of lookups and ordered snapshot scans, and InnoDB needs the separate key on the AUTO_INCREMENT column.
+CREATE TABLE IF NOT EXISTS salary_revision (
+  revision_id BIGINT NOT NULL AUTO_INCREMENT,
+  employee_id INT NOT NULL,
+  effective_from DATE NOT NULL,
+  basic_salary DECIMAL(12,2) NOT NULL,
+  hra DECIMAL(12,2) NOT NULL,
+  da DECIMAL(12,2) NOT NULL,
+  deductions DECIMAL(12,2) NOT NULL,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (employee_id, effective_from, revision_id),
+  KEY idx_salary_revision_id (revision_id),
+  CONSTRAINT fk_salary_revision_employee FOREIGN KEY (employee_id) REFERENCES employee(id)
+);
+
+-- Upgrade: salary_revision tables keyed on (employee_id, effective_from), which kept one revision per day.
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'salary_revision' AND COLUMN_NAME = 'revision_id') = 0,
+              'ALTER TABLE salary_revision ADD COLUMN revision_id BIGINT NOT NULL AUTO_INCREMENT FIRST, DROP PRIMARY KEY, '
+              'ADD PRIMARY KEY (employee_id, effective_from, revision_id), ADD KEY idx_salary_revision_id (revision_id)',
+              'DO 0');
+PREPARE upgrade FROM @ddl; EXECUTE upgrade; DEALLOCATE PREPARE upgrade;
+
+-- Upgrade: salary_revision tables whose foreign key cascaded hard deletes into the history.
+-- MySQL rejects dropping and re-adding a constraint of the same name in one statement, hence two.
+SET @cascades = (SELECT COUNT(*) FROM information_schema.REFERENTIAL_CONSTRAINTS
+                 WHERE CONSTRAINT_SCHEMA = DATABASE() AND CONSTRAINT_NAME = 'fk_salary_revision_employee'
+                   AND DELETE_RULE = 'CASCADE');
+SET @ddl = IF(@cascades > 0, 'ALTER TABLE salary_revision DROP FOREIGN KEY fk_salary_revision_employee', 'DO 0');
+PREPARE upgrade FROM @ddl; EXECUTE upgrade; DEALLOCATE PREPARE upgrade;
+SET @ddl = IF(@cascades > 0,
+              'ALTER TABLE salary_revision ADD CONSTRAINT fk_salary_revision_employee FOREIGN KEY (employee_id) REFERENCES employee(id)',
+              'DO 0');
+PREPARE upgrade FROM @ddl; EXECUTE upgrade; DEALLOCATE PREPARE upgrade;
+
+-- Backfill a starting revision for employees created before salary history existed.
+INSERT INTO salary_revision (employee_id, effective_from, basic_salary, hra, da, deductions)
+SELECT e.id, DATE(e.created_at), e.basic_salary, e.hra, e.da, e.deductions FROM employee e
+WHERE NOT EXISTS (SELECT 1 FROM salary_revision r WHERE r.employee_id = e.id);
+
+-- Per-designation payroll totals, kept in step with employee by EmployeeDAO inside the same transaction.
+CREATE TABLE IF NOT EXISTS designation_summary (
+  designation VARCHAR(100) PRIMARY KEY,
+  employee_count INT NOT NULL,
+  gross_total DECIMAL(16,2) NOT NULL,
+  net_total DECIMAL(16,2) NOT NULL,
+  min_net DECIMAL(12,2) NOT NULL,
+  max_net DECIMAL(12,2) NOT NULL
+);
+
+-- Rebuilt from scratch on every run, so it also repairs any drift; one transaction, so readers never see it empty.
+START TRANSACTION;
+DELETE FROM designation_summary;
+INSERT INTO designation_summary (designation, employee_count, gross_total, net_total, min_net, max_net)
+SELECT designation, COUNT(*), SUM(basic_salary + hra + da), SUM(basic_salary + hra + da - deductions),
+       MIN(basic_salary + hra + da - deductions), MAX(basic_salary + hra + da - deductions)
+FROM employee WHERE deleted_at IS NULL GROUP BY designation;
+COMMIT;
@@ -0,0 +1,153 @@
+package dao;
+
+import db.DBConnection;
+import model.DesignationSummary;
+import model.Employee;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and maintains the designation_summary table. The apply methods take the caller's
+ * connection so the delta commits or rolls back together with the employee change.
+ */
+public class DesignationSummaryDAO {
+
+    public List<DesignationSummary> getAllSummaries() throws SQLException {
+        String sql = "SELECT designation, employee_count, gross_total, net_total, min_net, max_net FROM designation_summary ORDER BY designation";
+        List<DesignationSummary> summaries = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                summaries.add(new DesignationSummary(
+                        rs.getString("designation"),
+                        rs.getInt("employee_count"),
+                        rs.getBigDecimal("gross_total"),
+                        rs.getBigDecimal("net_total"),
+                        rs.getBigDecimal("min_net"),
+                        rs.getBigDecimal("max_net")));
+            }
+        }
+        return summaries;
+    }
+
+    void applyAdd(Connection conn, Employee employee) throws SQLException {
+        String sql = "INSERT INTO designation_summary(designation, employee_count, gross_total, net_total, min_net, max_net) VALUES (?, 1, ?, ?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE employee_count=employee_count+1, gross_total=gross_total+VALUES(gross_total), "
+                + "net_total=net_total+VALUES(net_total), min_net=LEAST(min_net, VALUES(min_net)), max_net=GREATEST(max_net, VALUES(max_net))";
+        Employee stored = stored(employee);
+        BigDecimal net = stored.getNetSalary();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, employee.getDesignation());
+            ps.setBigDecimal(2, stored.getGrossSalary());
+            ps.setBigDecimal(3, net);
+            ps.setBigDecimal(4, net);
+            ps.setBigDecimal(5, net);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Locks the summary rows of both designations up front, in index order. An employee moving from
+     * A to B would otherwise lock A in applyRemove and then B in applyAdd, deadlocking with a
+     * concurrent move from B to A.
+     */
+    void lockRows(Connection conn, String first, String second) throws SQLException {
+        String sql = "SELECT designation FROM designation_summary WHERE designation IN (?, ?) ORDER BY designation FOR UPDATE";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, first);
+            ps.setString(2, second);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    // reading the rows is what takes the locks
+                }
+            }
+        }
+    }
+
+    /**
+     * Subtracts a removed (or pre-update) employee. Must run after the employee table change so that,
+     * when the removed row held the min or max, the recomputation sees the remaining rows only.
+     */
+    void applyRemove(Connection conn, Employee employee) throws SQLException {
+        String designation = employee.getDesignation();
+        Employee stored = stored(employee);
+        BigDecimal net = stored.getNetSalary();
+        int count;
+        BigDecimal min;
+        BigDecimal max;
+        String lockSql = "SELECT employee_count, min_net, max_net FROM designation_summary WHERE designation=? FOR UPDATE";
+        try (PreparedStatement ps = conn.prepareStatement(lockSql)) {
+            ps.setString(1, designation);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return;
+                count = rs.getInt("employee_count");
+                min = rs.getBigDecimal("min_net");
+                max = rs.getBigDecimal("max_net");
+            }
+        }
+        if (count <= 1) {
+            delete(conn, designation);
+            return;
+        }
+
+        String sql = "UPDATE designation_summary SET employee_count=employee_count-1, gross_total=gross_total-?, net_total=net_total-? WHERE designation=?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBigDecimal(1, stored.getGrossSalary());
+            ps.setBigDecimal(2, net);
+            ps.setString(3, designation);
+            ps.executeUpdate();
+        }
+        if (net.compareTo(min) <= 0 || net.compareTo(max) >= 0) {
+            recomputeExtremes(conn, designation);
+        }
+    }
+
+    private void recomputeExtremes(Connection conn, String designation) throws SQLException {
+        // A plain SELECT is a non-locking consistent read. Folding it into the UPDATE would take shared
+        // locks on the designation's employee rows and deadlock with concurrent writers in it.
+        // Uses idx_employee_designation, so this touches only the rows of one designation.
+        String selectSql = "SELECT MIN(basic_salary + hra + da - deductions) AS min_net, MAX(basic_salary + hra + da - deductions) AS max_net "
+                + "FROM employee WHERE designation=? AND deleted_at IS NULL";
+        BigDecimal min;
+        BigDecimal max;
+        try (PreparedStatement ps = conn.prepareStatement(selectSql)) {
+            ps.setString(1, designation);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return;
+                min = rs.getBigDecimal("min_net");
+                max = rs.getBigDecimal("max_net");
+            }
+        }
+        if (min == null) return;
+
+        String updateSql = "UPDATE designation_summary SET min_net=?, max_net=? WHERE designation=?";
+        try (PreparedStatement ps = conn.prepareStatement(updateSql)) {
+            ps.setBigDecimal(1, min);
+            ps.setBigDecimal(2, max);
+            ps.setString(3, designation);
+            ps.executeUpdate();
+        }
+    }
+
+    // Deltas must use the values as the DECIMAL(12,2) columns store them, or the totals drift.
+    private Employee stored(Employee e) {
+        return new Employee(e.getId(), e.getName(), e.getDesignation(), scale(e.getBasicSalary()),
+                scale(e.getHra()), scale(e.getDa()), scale(e.getDeductions()));
+    }
+
+    private BigDecimal scale(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private void delete(Connection conn, String designation) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM designation_summary WHERE designation=?")) {
+            ps.setString(1, designation);
+            ps.executeUpdate();
+        }
+    }
+}
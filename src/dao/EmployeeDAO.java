@@ -5,57 +5,156 @@ import model.Employee;
 
 import java.math.BigDecimal;
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class EmployeeDAO {
 
+    private final DesignationSummaryDAO summaryDAO = new DesignationSummaryDAO();
+
     public void addEmployee(Employee employee) throws SQLException {
         String sql = "INSERT INTO employee(name, designation, basic_salary, hra, da, deductions) VALUES (?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setString(1, employee.getName());
-            ps.setString(2, employee.getDesignation());
-            ps.setBigDecimal(3, nullToZero(employee.getBasicSalary()));
-            ps.setBigDecimal(4, nullToZero(employee.getHra()));
-            ps.setBigDecimal(5, nullToZero(employee.getDa()));
-            ps.setBigDecimal(6, nullToZero(employee.getDeductions()));
-            ps.executeUpdate();
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                ps.setString(1, employee.getName());
+                ps.setString(2, employee.getDesignation());
+                ps.setBigDecimal(3, nullToZero(employee.getBasicSalary()));
+                ps.setBigDecimal(4, nullToZero(employee.getHra()));
+                ps.setBigDecimal(5, nullToZero(employee.getDa()));
+                ps.setBigDecimal(6, nullToZero(employee.getDeductions()));
+                ps.executeUpdate();
 
-            try (ResultSet rs = ps.getGeneratedKeys()) {
-                if (rs.next()) {
-                    employee.setId(rs.getInt(1));
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        employee.setId(rs.getInt(1));
+                    }
                 }
+                insertRevision(conn, employee, LocalDate.now());
+                summaryDAO.applyAdd(conn, employee);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
         }
     }
 
     public boolean updateEmployee(Employee employee) throws SQLException {
+        return updateEmployee(employee, LocalDate.now());
+    }
+
+    /**
+     * Appends a salary revision effective from the given date; earlier revisions, including others
+     * for the same date, are kept. The current row and the designation summary change only when the
+     * revision is the one in effect today: not future-dated, and not older than the latest revision
+     * already in effect. Backdated and future-dated revisions only add history, which as-of reads and
+     * payroll snapshots pick up.
+     */
+    public boolean updateEmployee(Employee employee, LocalDate effectiveFrom) throws SQLException {
         String sql = "UPDATE employee SET name=?, designation=?, basic_salary=?, hra=?, da=?, deductions=? WHERE id=?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, employee.getName());
-            ps.setString(2, employee.getDesignation());
+        LocalDate today = LocalDate.now();
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                Employee previous = lockEmployee(conn, employee.getId());
+                if (previous == null) {
+                    conn.rollback();
+                    return false;
+                }
+                LocalDate inEffect = latestRevisionDate(conn, employee.getId(), today);
+                if (!effectiveFrom.isAfter(today) && (inEffect == null || !effectiveFrom.isBefore(inEffect))) {
+                    ps.setString(1, employee.getName());
+                    ps.setString(2, employee.getDesignation());
+                    ps.setBigDecimal(3, nullToZero(employee.getBasicSalary()));
+                    ps.setBigDecimal(4, nullToZero(employee.getHra()));
+                    ps.setBigDecimal(5, nullToZero(employee.getDa()));
+                    ps.setBigDecimal(6, nullToZero(employee.getDeductions()));
+                    ps.setInt(7, employee.getId());
+                    ps.executeUpdate();
+                    if (!previous.getDesignation().equals(employee.getDesignation())) {
+                        summaryDAO.lockRows(conn, previous.getDesignation(), employee.getDesignation());
+                    }
+                    summaryDAO.applyRemove(conn, previous);
+                    summaryDAO.applyAdd(conn, employee);
+                }
+                insertRevision(conn, employee, effectiveFrom);
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // Callers hold the employee row lock, so no other revision for this employee can land in between.
+    private LocalDate latestRevisionDate(Connection conn, int employeeId, LocalDate onOrBefore) throws SQLException {
+        String sql = "SELECT MAX(effective_from) FROM salary_revision WHERE employee_id=? AND effective_from <= ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, employeeId);
+            ps.setDate(2, Date.valueOf(onOrBefore));
+            try (ResultSet rs = ps.executeQuery()) {
+                Date latest = rs.next() ? rs.getDate(1) : null;
+                return latest == null ? null : latest.toLocalDate();
+            }
+        }
+    }
+
+    private void insertRevision(Connection conn, Employee employee, LocalDate effectiveFrom) throws SQLException {
+        String sql = "INSERT INTO salary_revision(employee_id, effective_from, basic_salary, hra, da, deductions) VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, employee.getId());
+            ps.setDate(2, Date.valueOf(effectiveFrom));
             ps.setBigDecimal(3, nullToZero(employee.getBasicSalary()));
             ps.setBigDecimal(4, nullToZero(employee.getHra()));
             ps.setBigDecimal(5, nullToZero(employee.getDa()));
             ps.setBigDecimal(6, nullToZero(employee.getDeductions()));
-            ps.setInt(7, employee.getId());
-            return ps.executeUpdate() > 0;
+            ps.executeUpdate();
         }
     }
 
+    /**
+     * Soft-deletes the employee: they disappear from current reads but their salary history stays,
+     * so snapshots for periods before the deletion still include them.
+     */
     public boolean deleteEmployee(int id) throws SQLException {
-        String sql = "DELETE FROM employee WHERE id=?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        String sql = "UPDATE employee SET deleted_at=CURRENT_TIMESTAMP WHERE id=?";
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                Employee previous = lockEmployee(conn, id);
+                if (previous == null) {
+                    conn.rollback();
+                    return false;
+                }
+                ps.setInt(1, id);
+                ps.executeUpdate();
+                summaryDAO.applyRemove(conn, previous);
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // Reads the current row and holds its lock, so the summary delta is computed from the values actually replaced.
+    private Employee lockEmployee(Connection conn, int id) throws SQLException {
+        String sql = "SELECT id, name, designation, basic_salary, hra, da, deductions FROM employee WHERE id=? AND deleted_at IS NULL FOR UPDATE";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, id);
-            return ps.executeUpdate() > 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapRow(rs) : null;
+            }
         }
     }
 
     public Employee getEmployeeById(int id) throws SQLException {
-        String sql = "SELECT id, name, designation, basic_salary, hra, da, deductions FROM employee WHERE id=?";
+        String sql = "SELECT id, name, designation, basic_salary, hra, da, deductions FROM employee WHERE id=? AND deleted_at IS NULL";
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, id);
@@ -69,7 +168,7 @@ public class EmployeeDAO {
     }
 
     public List<Employee> getAllEmployees() throws SQLException {
-        String sql = "SELECT id, name, designation, basic_salary, hra, da, deductions FROM employee ORDER BY id";
+        String sql = "SELECT id, name, designation, basic_salary, hra, da, deductions FROM employee WHERE deleted_at IS NULL ORDER BY id";
         List<Employee> employees = new ArrayList<>();
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql);
@@ -81,6 +180,104 @@ public class EmployeeDAO {
         return employees;
     }
 
+    /**
+     * Returns at most {@code limit} employees, lowest ids first.
+     */
+    public List<Employee> getEmployees(int limit) throws SQLException {
+        String sql = "SELECT id, name, designation, basic_salary, hra, da, deductions FROM employee WHERE deleted_at IS NULL ORDER BY id LIMIT ?";
+        List<Employee> employees = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    employees.add(mapRow(rs));
+                }
+            }
+        }
+        return employees;
+    }
+
+    /**
+     * Returns the employee with the salary revision in effect on the given date, or null if the
+     * employee did not exist, had no salary yet, or had already been deleted before that date.
+     * Of several revisions effective the same day, the last recorded wins. Name and designation
+     * are the latest recorded.
+     */
+    public Employee getEmployeeAsOf(int id, LocalDate asOf) throws SQLException {
+        String sql = "SELECT e.id, e.name, e.designation, r.basic_salary, r.hra, r.da, r.deductions "
+                + "FROM employee e JOIN salary_revision r ON r.employee_id = e.id "
+                + "WHERE e.id=? AND r.effective_from <= ? AND (e.deleted_at IS NULL OR e.deleted_at >= ?) "
+                + "ORDER BY r.effective_from DESC, r.revision_id DESC LIMIT 1";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            ps.setDate(2, Date.valueOf(asOf));
+            ps.setDate(3, Date.valueOf(asOf));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapRow(rs);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Streams every employee with the salary in effect on the given date. Employees deleted on or
+     * after the date are still included, so reruns of past dates match the original run.
+     */
+    public void streamSnapshotAsOf(LocalDate asOf, Consumer<Employee> consumer) throws SQLException {
+        streamSnapshotForPeriod(asOf, asOf, consumer);
+    }
+
+    /**
+     * Streams every employee on the books at any point in the period, with the salary in effect on
+     * its last day, so someone who left mid-month still gets that month's payslip. Rows are read in
+     * salary_revision primary key order (employee, effective date, revision, all ascending), so MySQL
+     * serves them straight from the index without a sort; the last row of each employee's group is
+     * the one in effect and is the only one emitted. If the consumer throws, the query is cancelled
+     * and the exception propagates.
+     */
+    public void streamSnapshotForPeriod(LocalDate periodStart, LocalDate periodEnd, Consumer<Employee> consumer) throws SQLException {
+        String sql = "SELECT e.id, e.name, e.designation, r.basic_salary, r.hra, r.da, r.deductions "
+                + "FROM salary_revision r JOIN employee e ON e.id = r.employee_id "
+                + "WHERE r.effective_from <= ? AND (e.deleted_at IS NULL OR e.deleted_at >= ?) "
+                + "ORDER BY r.employee_id, r.effective_from, r.revision_id";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setDate(1, Date.valueOf(periodEnd));
+            ps.setDate(2, Date.valueOf(periodStart));
+            try (ResultSet rs = ps.executeQuery()) {
+                Employee pending = null;
+                while (rs.next()) {
+                    Employee current = mapRow(rs);
+                    if (pending != null && pending.getId() != current.getId()) {
+                        consumer.accept(pending);
+                    }
+                    pending = current;
+                }
+                if (pending != null) {
+                    consumer.accept(pending);
+                }
+            } catch (RuntimeException e) {
+                // The consumer aborted. Closing a streaming result set reads every remaining row off the wire,
+                // so stop the query on the server first.
+                cancelQuietly(ps);
+                throw e;
+            }
+        }
+    }
+
+    private static void cancelQuietly(Statement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException ignored) {
+            // best effort: closing still works, it just drains the rest of the result first
+        }
+    }
+
     private Employee mapRow(ResultSet rs) throws SQLException {
         int id = rs.getInt("id");
         String name = rs.getString("name");
@@ -1,13 +1,31 @@
 package db;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 public class DBConnection {
     private static final String DEFAULT_URL = System.getenv().getOrDefault("DB_URL", "jdbc:mysql://localhost:3306/payroll?useSSL=false&serverTimezone=UTC");
     private static final String DEFAULT_USER = System.getenv().getOrDefault("DB_USER", "root");
     private static final String DEFAULT_PASSWORD = System.getenv().getOrDefault("DB_PASSWORD", "");
+    // Defaults to the web server's DB concurrency ceiling, so every admitted request can get a connection.
+    private static final int POOL_SIZE = parsePoolSize(System.getenv("DB_POOL_SIZE"),
+            parsePoolSize(System.getenv("DB_CONCURRENCY_MAX"), 64));
+    private static final long CHECKOUT_TIMEOUT_MILLIS = 5_000;
+    // Connections idle longer than this are validated before reuse; the server may have dropped them.
+    private static final long VALIDATE_AFTER_NANOS = 30_000_000_000L;
+
+    private static final BlockingQueue<IdleConnection> IDLE = new LinkedBlockingQueue<>();
+    // One permit per checked-out connection; with idle ones capped too, at most DB_POOL_SIZE are ever open.
+    private static final Semaphore CHECKOUTS = new Semaphore(POOL_SIZE);
 
     static {
         try {
@@ -22,7 +40,146 @@ public class DBConnection {
         }
     }
 
+    /**
+     * Returns a pooled connection. At most DB_POOL_SIZE are checked out at once; further callers
+     * wait for one to be closed, and fail after a few seconds. Closing it hands the physical
+     * connection back to the pool instead of closing the socket.
+     */
     public static Connection getConnection() throws SQLException {
+        try {
+            if (!CHECKOUTS.tryAcquire(CHECKOUT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out waiting for a pooled connection (DB_POOL_SIZE=" + POOL_SIZE + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a pooled connection", e);
+        }
+        try {
+            IdleConnection idle;
+            while ((idle = IDLE.poll()) != null) {
+                if (isUsable(idle)) {
+                    return pooled(idle.connection);
+                }
+                closeQuietly(idle.connection);
+            }
+            return pooled(open());
+        } catch (SQLException | RuntimeException e) {
+            CHECKOUTS.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens connections until the pool holds {@code count} of them, idle or in use (capped at DB_POOL_SIZE),
+     * so the first requests after startup do not pay for driver loading and TCP/auth handshakes.
+     */
+    public static void prefill(int count) throws SQLException {
+        int target = Math.min(count, POOL_SIZE);
+        while (IDLE.size() + (POOL_SIZE - CHECKOUTS.availablePermits()) < target) {
+            IDLE.offer(new IdleConnection(open()));
+        }
+    }
+
+    public static int poolSize() {
+        return POOL_SIZE;
+    }
+
+    public static int idleCount() {
+        return IDLE.size();
+    }
+
+    private static Connection open() throws SQLException {
         return DriverManager.getConnection(DEFAULT_URL, DEFAULT_USER, DEFAULT_PASSWORD);
     }
+
+    private static boolean isUsable(IdleConnection idle) {
+        try {
+            if (idle.connection.isClosed()) return false;
+            if (System.nanoTime() - idle.returnedAt < VALIDATE_AFTER_NANOS) return true;
+            return idle.connection.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void release(Connection physical) {
+        try {
+            if (physical.isClosed()) return;
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (IDLE.size() < POOL_SIZE) {
+                IDLE.offer(new IdleConnection(physical));
+                return;
+            }
+            closeQuietly(physical);
+        } catch (SQLException e) {
+            // discard the broken connection
+            closeQuietly(physical);
+        } finally {
+            CHECKOUTS.release();
+        }
+    }
+
+    private static void closeQuietly(Connection c) {
+        try { c.close(); } catch (SQLException ignored) {}
+    }
+
+    private static Connection pooled(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                DBConnection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledHandler(physical));
+    }
+
+    private static int parsePoolSize(String value, int def) {
+        if (value == null) return def;
+        try { return Math.max(1, Integer.parseInt(value.trim())); } catch (NumberFormatException e) { return def; }
+    }
+
+    private static final class IdleConnection {
+        final Connection connection;
+        final long returnedAt = System.nanoTime();
+
+        IdleConnection(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    private static final class PooledHandler implements InvocationHandler {
+        private final Connection physical;
+        private boolean closed;
+
+        PooledHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + physical + "]";
+                default:
+                    if (closed) throw new SQLException("Connection is closed");
+                    try {
+                        return method.invoke(physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package loadtest;
+
+import dao.DesignationSummaryDAO;
+import model.DesignationSummary;
+import model.Employee;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Report stand-in for {@link InMemoryEmployeeDAO}. Aggregates on demand, which is fine for load
+ * runs; the production path reads the incrementally maintained summary table instead.
+ */
+public class InMemoryDesignationSummaryDAO extends DesignationSummaryDAO {
+
+    private final InMemoryEmployeeDAO employeeDAO;
+
+    public InMemoryDesignationSummaryDAO(InMemoryEmployeeDAO employeeDAO) {
+        this.employeeDAO = employeeDAO;
+    }
+
+    @Override
+    public List<DesignationSummary> getAllSummaries() {
+        Map<String, List<Employee>> byDesignation = new TreeMap<>();
+        for (Employee e : employeeDAO.getAllEmployees()) {
+            byDesignation.computeIfAbsent(e.getDesignation(), k -> new ArrayList<>()).add(e);
+        }
+
+        List<DesignationSummary> summaries = new ArrayList<>(byDesignation.size());
+        for (Map.Entry<String, List<Employee>> entry : byDesignation.entrySet()) {
+            BigDecimal gross = BigDecimal.ZERO;
+            BigDecimal net = BigDecimal.ZERO;
+            BigDecimal min = null;
+            BigDecimal max = null;
+            for (Employee e : entry.getValue()) {
+                BigDecimal n = e.getNetSalary();
+                gross = gross.add(e.getGrossSalary());
+                net = net.add(n);
+                min = min == null || n.compareTo(min) < 0 ? n : min;
+                max = max == null || n.compareTo(max) > 0 ? n : max;
+            }
+            summaries.add(new DesignationSummary(entry.getKey(), entry.getValue().size(), gross, net, min, max));
+        }
+        return summaries;
+    }
+}
@@ -0,0 +1,118 @@
+package loadtest;
+
+import dao.EmployeeDAO;
+import model.Employee;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Database stand-in for load runs on machines without MySQL. Keeps employees and their salary
+ * revisions in memory and hands out copies, matching the DAO's behaviour of returning fresh objects.
+ */
+public class InMemoryEmployeeDAO extends EmployeeDAO {
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final ConcurrentSkipListMap<Integer, Employee> employees = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Integer, NavigableMap<LocalDate, Employee>> revisions = new ConcurrentSkipListMap<>();
+    // Soft-deleted employees, kept with their deletion date so past snapshots still include them.
+    private final Map<Integer, Employee> departed = new ConcurrentHashMap<>();
+    private final Map<Integer, LocalDate> deletedOn = new ConcurrentHashMap<>();
+
+    @Override
+    public void addEmployee(Employee employee) {
+        employee.setId(nextId.getAndIncrement());
+        employees.put(employee.getId(), copy(employee));
+        revisions.computeIfAbsent(employee.getId(), k -> new ConcurrentSkipListMap<>()).put(LocalDate.now(), copy(employee));
+    }
+
+    // Same rules as the JDBC version; the lock stands in for its row lock. Only the last revision for a date
+    // is ever read, so a map keyed by date is enough.
+    @Override
+    public synchronized boolean updateEmployee(Employee employee, LocalDate effectiveFrom) {
+        int id = employee.getId();
+        if (!employees.containsKey(id)) return false;
+        LocalDate today = LocalDate.now();
+        NavigableMap<LocalDate, Employee> history = revisions.computeIfAbsent(id, k -> new ConcurrentSkipListMap<>());
+        LocalDate inEffect = history.floorKey(today);
+        if (!effectiveFrom.isAfter(today) && (inEffect == null || !effectiveFrom.isBefore(inEffect))) {
+            employees.put(id, copy(employee));
+        }
+        history.put(effectiveFrom, copy(employee));
+        return true;
+    }
+
+    @Override
+    public synchronized boolean deleteEmployee(int id) {
+        Employee removed = employees.remove(id);
+        if (removed == null) return false;
+        deletedOn.put(id, LocalDate.now());
+        departed.put(id, removed);
+        return true;
+    }
+
+    @Override
+    public Employee getEmployeeById(int id) {
+        Employee e = employees.get(id);
+        return e == null ? null : copy(e);
+    }
+
+    @Override
+    public List<Employee> getAllEmployees() {
+        List<Employee> all = new ArrayList<>(employees.size());
+        for (Employee e : employees.values()) all.add(copy(e));
+        return all;
+    }
+
+    @Override
+    public List<Employee> getEmployees(int limit) {
+        List<Employee> page = new ArrayList<>(Math.min(limit, employees.size()));
+        for (Employee e : employees.values()) {
+            if (page.size() >= limit) break;
+            page.add(copy(e));
+        }
+        return page;
+    }
+
+    @Override
+    public Employee getEmployeeAsOf(int id, LocalDate asOf) {
+        return snapshotOf(id, asOf, asOf);
+    }
+
+    @Override
+    public void streamSnapshotForPeriod(LocalDate periodStart, LocalDate periodEnd, Consumer<Employee> consumer) {
+        for (Integer id : revisions.keySet()) {
+            Employee e = snapshotOf(id, periodStart, periodEnd);
+            if (e != null) consumer.accept(e);
+        }
+    }
+
+    // The salary in effect on asOf, for an employee not deleted before activeSince.
+    private Employee snapshotOf(int id, LocalDate activeSince, LocalDate asOf) {
+        Employee current = employees.get(id);
+        if (current == null) {
+            LocalDate deleted = deletedOn.get(id);
+            if (deleted == null || deleted.isBefore(activeSince)) return null;
+            current = departed.get(id);
+        }
+        NavigableMap<LocalDate, Employee> history = revisions.get(id);
+        if (current == null || history == null) return null;
+        Map.Entry<LocalDate, Employee> entry = history.floorEntry(asOf);
+        if (entry == null) return null;
+        Employee e = copy(entry.getValue());
+        e.setName(current.getName());
+        e.setDesignation(current.getDesignation());
+        return e;
+    }
+
+    private static Employee copy(Employee e) {
+        return new Employee(e.getId(), e.getName(), e.getDesignation(), e.getBasicSalary(), e.getHra(), e.getDa(), e.getDeductions());
+    }
+}
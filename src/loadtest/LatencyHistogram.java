@@ -0,0 +1,68 @@
+package loadtest;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-linear latency histogram in the style of HdrHistogram: values (microseconds) fall into
+ * power-of-two ranges, each split into 64 linear sub-buckets, so any recorded value is reported
+ * within about 1.6% of its true value. Recording is a single atomic increment.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF = SUB_COUNT / 2;
+    private static final int MAX_SHIFT = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(SUB_COUNT + MAX_SHIFT * HALF);
+    private final LongAdder total = new LongAdder();
+
+    public void record(long micros) {
+        counts.incrementAndGet(indexOf(Math.max(0, micros)));
+        total.increment();
+    }
+
+    public long count() {
+        return total.sum();
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the highest value equivalent to the given percentile, in microseconds
+     */
+    public long valueAt(double percentile) {
+        long n = total.sum();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100d * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return highestValueOf(i);
+        }
+        return highestValueOf(counts.length() - 1);
+    }
+
+    public long max() {
+        for (int i = counts.length() - 1; i >= 0; i--) {
+            if (counts.get(i) > 0) return highestValueOf(i);
+        }
+        return 0;
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_COUNT) return (int) value;
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BITS - 1);
+        if (shift > MAX_SHIFT) return SUB_COUNT + MAX_SHIFT * HALF - 1;
+        int top = (int) (value >>> shift);
+        return SUB_COUNT + (shift - 1) * HALF + (top - HALF);
+    }
+
+    private static long highestValueOf(int index) {
+        if (index < SUB_COUNT) return index;
+        int k = index - SUB_COUNT;
+        int shift = k / HALF + 1;
+        long top = k % HALF + HALF;
+        return ((top + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,325 @@
+package loadtest;
+
+import web.PayrollServer;
+import web.RateLimiter;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Open-loop load generator for the payroll API. Seeds synthetic employees through the API, then
+ * issues a weighted mix of list/get/create/update/delete at a fixed rate for the given duration.
+ * Latency is measured from each request's scheduled start, so a stalled server shows up in the
+ * percentiles instead of silently lowering the offered rate.
+ *
+ * <pre>
+ * java loadtest.LoadGenerator [--url http://host:8080] [--seed 1000] [--rate 200] [--duration 60]
+ *                             [--mix list=5,get=60,create=10,update=20,delete=5] [--report-every 10] [--api-key KEY]
+ * </pre>
+ * Without --url an embedded server backed by {@link InMemoryEmployeeDAO} is started.
+ */
+public class LoadGenerator {
+
+    enum Route { LIST, GET, CREATE, UPDATE, DELETE }
+
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\":(\\d+)");
+    private static final String[] DESIGNATIONS = {"Engineer", "Senior Engineer", "Manager", "Analyst", "Accountant", "HR Executive"};
+    private static final int MAX_IN_FLIGHT = 10_000;
+
+    private final String baseUrl;
+    private final String apiKey;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ConcurrentSkipListSet<Integer> ids = new ConcurrentSkipListSet<>();
+    private final Map<Route, RouteStats> stats = new EnumMap<>(Route.class);
+    private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+    private final LongAdder dropped = new LongAdder();
+
+    LoadGenerator(String baseUrl, String apiKey) {
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        for (Route r : Route.values()) stats.put(r, new RouteStats());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parseArgs(args);
+        int seed = Integer.parseInt(opts.getOrDefault("seed", "1000"));
+        double rate = Double.parseDouble(opts.getOrDefault("rate", "200"));
+        int duration = Integer.parseInt(opts.getOrDefault("duration", "60"));
+        int reportEvery = Integer.parseInt(opts.getOrDefault("report-every", "10"));
+        Map<Route, Integer> mix = parseMix(opts.getOrDefault("mix", "list=5,get=60,create=10,update=20,delete=5"));
+
+        PayrollServer embedded = null;
+        String url = opts.get("url");
+        if (url == null) {
+            InMemoryEmployeeDAO dao = new InMemoryEmployeeDAO();
+            // The generator is one client, so per-client rate limiting would only measure the limiter.
+            embedded = new PayrollServer(dao, new InMemoryDesignationSummaryDAO(dao), new RateLimiter(1_000_000, 1_000_000), false);
+            int port = embedded.start(0);
+            embedded.warmUp(false);
+            url = "http://localhost:" + port;
+        }
+
+        try {
+            LoadGenerator generator = new LoadGenerator(url, opts.get("api-key"));
+            generator.seed(seed);
+            generator.run(mix, rate, duration, reportEvery);
+        } finally {
+            if (embedded != null) embedded.stop();
+        }
+    }
+
+    void seed(int count) throws InterruptedException {
+        long start = System.nanoTime();
+        Semaphore permits = new Semaphore(64);
+        CountDownLatch done = new CountDownLatch(count);
+        LongAdder failures = new LongAdder();
+        for (int i = 0; i < count; i++) {
+            permits.acquire();
+            createWithRetry(5).whenComplete((id, err) -> {
+                if (err == null && id != null) ids.add(id);
+                else failures.increment();
+                permits.release();
+                done.countDown();
+            });
+        }
+        done.await();
+        System.out.printf("Seeded %d employees in %d ms (%d failed)%n",
+                ids.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), failures.sum());
+    }
+
+    // Seeding must not be skewed by admission control, so 429/503 responses are retried after a pause.
+    private CompletableFuture<Integer> createWithRetry(int attemptsLeft) {
+        return client.sendAsync(createRequest(), HttpResponse.BodyHandlers.ofString()).thenCompose(resp -> {
+            if (resp.statusCode() == 201) return CompletableFuture.completedFuture(parseId(resp.body()));
+            if ((resp.statusCode() == 429 || resp.statusCode() == 503) && attemptsLeft > 1) {
+                Executor later = CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS);
+                return CompletableFuture.supplyAsync(() -> attemptsLeft - 1, later).thenCompose(this::createWithRetry);
+            }
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    void run(Map<Route, Integer> mix, double rate, int durationSeconds, int reportEverySeconds) throws InterruptedException {
+        Route[] routes = mix.keySet().toArray(new Route[0]);
+        int[] cumulative = new int[routes.length];
+        int totalWeight = 0;
+        for (int i = 0; i < routes.length; i++) {
+            totalWeight += mix.get(routes[i]);
+            cumulative[i] = totalWeight;
+        }
+        if (totalWeight <= 0) throw new IllegalArgumentException("Mix weights must add up to more than zero");
+
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        double nanosPerRequest = 1_000_000_000d / rate;
+        long[] issued = {0};
+        int weight = totalWeight;
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleAtFixedRate(() -> {
+            long now = System.nanoTime();
+            long due = (long) ((Math.min(now, end) - start) / nanosPerRequest);
+            while (issued[0] < due) {
+                long intendedStart = start + (long) (issued[0] * nanosPerRequest);
+                issued[0]++;
+                int pick = ThreadLocalRandom.current().nextInt(weight);
+                int idx = 0;
+                while (cumulative[idx] <= pick) idx++;
+                fire(routes[idx], intendedStart);
+            }
+        }, 0, 1, TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(() -> reportInterval(reportEverySeconds),
+                reportEverySeconds, reportEverySeconds, TimeUnit.SECONDS);
+
+        long remaining;
+        while ((remaining = end - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+        scheduler.shutdownNow();
+        // Let outstanding requests finish (or time out) before reporting.
+        inFlight.tryAcquire(MAX_IN_FLIGHT, 30, TimeUnit.SECONDS);
+        reportFinal(durationSeconds);
+    }
+
+    private void fire(Route route, long intendedStart) {
+        if (!inFlight.tryAcquire()) {
+            dropped.increment();
+            return;
+        }
+        HttpRequest request = requestFor(route);
+        if (request == null) {
+            // Nothing left to read, update or delete; grow the data set instead.
+            route = Route.CREATE;
+            request = createRequest();
+        }
+        Route r = route;
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((resp, err) -> {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+            int status = err == null ? resp.statusCode() : -1;
+            if (r == Route.CREATE && status == 201) {
+                Integer id = parseId(resp.body());
+                if (id != null) ids.add(id);
+            }
+            stats.get(r).record(status, micros);
+            inFlight.release();
+        });
+    }
+
+    private HttpRequest requestFor(Route route) {
+        switch (route) {
+            case LIST:
+                return request("/api/employees").GET().build();
+            case CREATE:
+                return createRequest();
+            case GET: {
+                int id = randomId();
+                return id < 0 ? null : request("/api/employees/" + id).GET().build();
+            }
+            case UPDATE: {
+                int id = randomId();
+                if (id < 0) return null;
+                String body = "basic_salary=" + ThreadLocalRandom.current().nextInt(20_000, 200_000)
+                        + "&deductions=" + ThreadLocalRandom.current().nextInt(0, 5_000);
+                return request("/api/employees/" + id)
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .PUT(HttpRequest.BodyPublishers.ofString(body)).build();
+            }
+            case DELETE: {
+                int id = randomId();
+                // Remove up front so two deletes never race for the same row.
+                if (id < 0 || !ids.remove(id)) return null;
+                return request("/api/employees/" + id).DELETE().build();
+            }
+            default:
+                throw new IllegalArgumentException("Unknown route " + route);
+        }
+    }
+
+    private HttpRequest createRequest() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        String body = "name=Load+Test+" + rnd.nextInt(1_000_000)
+                + "&designation=" + DESIGNATIONS[rnd.nextInt(DESIGNATIONS.length)].replace(' ', '+')
+                + "&basic_salary=" + rnd.nextInt(20_000, 200_000)
+                + "&hra=" + rnd.nextInt(0, 40_000)
+                + "&da=" + rnd.nextInt(0, 20_000)
+                + "&deductions=" + rnd.nextInt(0, 5_000);
+        return request("/api/employees")
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(10));
+        if (apiKey != null) b.header("X-API-Key", apiKey);
+        return b;
+    }
+
+    private int randomId() {
+        try {
+            int lo = ids.first();
+            int hi = ids.last();
+            Integer id = ids.ceiling(ThreadLocalRandom.current().nextInt(lo, hi + 1));
+            return id == null ? hi : id;
+        } catch (NoSuchElementException e) {
+            return -1;
+        }
+    }
+
+    private static Integer parseId(String json) {
+        Matcher m = ID_PATTERN.matcher(json);
+        return m.find() ? Integer.valueOf(m.group(1)) : null;
+    }
+
+    private void reportInterval(int seconds) {
+        StringBuilder sb = new StringBuilder("[interval]");
+        for (Map.Entry<Route, RouteStats> e : stats.entrySet()) {
+            LatencyHistogram h = e.getValue().interval.getAndSet(new LatencyHistogram());
+            if (h.count() == 0) continue;
+            sb.append(String.format(" %s %.0f/s p50=%.1fms p99=%.1fms;", e.getKey().name().toLowerCase(),
+                    h.count() / (double) seconds, h.valueAt(50) / 1000d, h.valueAt(99) / 1000d));
+        }
+        System.out.println(sb);
+    }
+
+    private void reportFinal(int durationSeconds) {
+        System.out.println();
+        System.out.printf("%-8s %8s %8s %8s %9s %9s %9s %9s %9s  %s%n",
+                "route", "count", "errors", "rps", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+        for (Map.Entry<Route, RouteStats> e : stats.entrySet()) {
+            RouteStats s = e.getValue();
+            LatencyHistogram h = s.total;
+            if (h.count() == 0) continue;
+            System.out.printf("%-8s %8d %8d %8.1f %9.1f %9.1f %9.1f %9.1f %9.1f  %s%n",
+                    e.getKey().name().toLowerCase(), h.count(), s.errors.sum(), h.count() / (double) durationSeconds,
+                    h.valueAt(50) / 1000d, h.valueAt(90) / 1000d, h.valueAt(99) / 1000d, h.valueAt(99.9) / 1000d,
+                    h.max() / 1000d, s.statusSummary());
+        }
+        if (dropped.sum() > 0) {
+            System.out.println("Dropped (client at " + MAX_IN_FLIGHT + " in flight): " + dropped.sum());
+        }
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            opts.put(args[i].substring(2), args[i + 1]);
+        }
+        return opts;
+    }
+
+    private static Map<Route, Integer> parseMix(String spec) {
+        Map<Route, Integer> mix = new EnumMap<>(Route.class);
+        for (String part : spec.split(",")) {
+            String[] kv = part.split("=", 2);
+            if (kv.length != 2) throw new IllegalArgumentException("Invalid mix entry: " + part);
+            mix.put(Route.valueOf(kv[0].trim().toUpperCase()), Integer.parseInt(kv[1].trim()));
+        }
+        return mix;
+    }
+
+    private static final class RouteStats {
+        final LatencyHistogram total = new LatencyHistogram();
+        final AtomicReference<LatencyHistogram> interval = new AtomicReference<>(new LatencyHistogram());
+        final LongAdder errors = new LongAdder();
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        void record(int status, long micros) {
+            total.record(micros);
+            interval.get().record(micros);
+            if (status < 200 || status >= 300) errors.increment();
+            statuses.computeIfAbsent(status, k -> new LongAdder()).increment();
+        }
+
+        String statusSummary() {
+            StringBuilder sb = new StringBuilder();
+            statuses.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(e ->
+                    sb.append(e.getKey() == -1 ? "io" : String.valueOf(e.getKey())).append('=').append(e.getValue().sum()).append(' '));
+            return sb.toString().trim();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public class DesignationSummary {
+    private final String designation;
+    private final int employeeCount;
+    private final BigDecimal grossTotal;
+    private final BigDecimal netTotal;
+    private final BigDecimal minNet;
+    private final BigDecimal maxNet;
+
+    public DesignationSummary(String designation, int employeeCount, BigDecimal grossTotal, BigDecimal netTotal, BigDecimal minNet, BigDecimal maxNet) {
+        this.designation = designation;
+        this.employeeCount = employeeCount;
+        this.grossTotal = grossTotal;
+        this.netTotal = netTotal;
+        this.minNet = minNet;
+        this.maxNet = maxNet;
+    }
+
+    public BigDecimal getAverageNet() {
+        if (employeeCount == 0) return BigDecimal.ZERO;
+        return netTotal.divide(BigDecimal.valueOf(employeeCount), 2, RoundingMode.HALF_UP);
+    }
+
+    public String getDesignation() {
+        return designation;
+    }
+
+    public int getEmployeeCount() {
+        return employeeCount;
+    }
+
+    public BigDecimal getGrossTotal() {
+        return grossTotal;
+    }
+
+    public BigDecimal getNetTotal() {
+        return netTotal;
+    }
+
+    public BigDecimal getMinNet() {
+        return minNet;
+    }
+
+    public BigDecimal getMaxNet() {
+        return maxNet;
+    }
+}
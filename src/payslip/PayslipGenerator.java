@@ -0,0 +1,234 @@
+package payslip;
+
+import dao.EmployeeDAO;
+import model.Employee;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Payslip pipeline: the salary snapshot for the period is streamed from the DAO, rendered on a worker pool and written
+ * into a zip by a single writer thread. At most {@code workers * 4} payslips are in flight at any
+ * time, so memory stays flat regardless of head count.
+ */
+public class PayslipGenerator {
+
+    private static final Rendered POISON = new Rendered(0, null, null);
+
+    private final EmployeeDAO employeeDAO;
+    private final PayslipRenderer renderer;
+    private final int workers;
+
+    public PayslipGenerator(EmployeeDAO employeeDAO, PayslipRenderer renderer, int workers) {
+        if (workers <= 0) throw new IllegalArgumentException("workers must be positive");
+        this.employeeDAO = employeeDAO;
+        this.renderer = renderer;
+        this.workers = workers;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String period = args.length > 0 ? args[0] : YearMonth.now().toString();
+        Path output = Path.of(args.length > 1 ? args[1] : "payslips-" + period + ".zip");
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        PayslipGenerator generator = new PayslipGenerator(new EmployeeDAO(), new PayslipRenderer(), workers);
+        try (OutputStream out = Files.newOutputStream(output)) {
+            Stats stats = generator.generate(period, out);
+            System.out.println("Wrote " + output.toAbsolutePath());
+            System.out.println(stats);
+        }
+    }
+
+    /**
+     * @param period payroll month as {@code YYYY-MM}
+     */
+    public Stats generate(String period, OutputStream out) throws SQLException, IOException {
+        int maxInFlight = workers * 4;
+        Semaphore permits = new Semaphore(maxInFlight);
+        BlockingQueue<Rendered> writeQueue = new ArrayBlockingQueue<>(maxInFlight + 1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Stats stats = new Stats();
+        long start = System.nanoTime();
+
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        Thread writer = new Thread(() -> drain(writeQueue, zip, permits, failure, stats), "payslip-writer");
+        writer.start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "payslip-render");
+            t.setDaemon(true);
+            return t;
+        });
+        // Time spent handing rows off (mostly waiting for permits) is not DB fetch time.
+        LongAdder handOffNanos = new LongAdder();
+        try {
+            long fetchStart = System.nanoTime();
+            // Everyone employed during the month is paid, at the salary in effect at its end, not today's.
+            YearMonth month = YearMonth.parse(period);
+            employeeDAO.streamSnapshotForPeriod(month.atDay(1), month.atEndOfMonth(), employee -> {
+                // Stop reading the snapshot as soon as anything fails; the cause is reported below.
+                if (failure.get() != null) throw new Aborted();
+                long t0 = System.nanoTime();
+                permits.acquireUninterruptibly();
+                pool.execute(() -> render(employee, period, writeQueue, permits, failure, stats));
+                handOffNanos.add(System.nanoTime() - t0);
+            });
+            stats.fetchNanos = System.nanoTime() - fetchStart - handOffNanos.sum();
+        } catch (Aborted e) {
+            // failure already holds the cause
+        } finally {
+            pool.shutdown();
+            awaitQuietly(pool);
+            putUninterruptibly(writeQueue, POISON);
+            joinQuietly(writer);
+        }
+        Throwable t = failure.get();
+        if (t instanceof IOException) throw (IOException) t;
+        if (t != null) throw new IOException("Payslip generation failed", t);
+
+        zip.finish();
+        zip.flush();
+        stats.wallNanos = System.nanoTime() - start;
+        return stats;
+    }
+
+    private void render(Employee employee, String period, BlockingQueue<Rendered> writeQueue,
+                        Semaphore permits, AtomicReference<Throwable> failure, Stats stats) {
+        long t0 = System.nanoTime();
+        boolean queued = false;
+        try {
+            byte[] html = renderer.renderHtml(employee, period);
+            byte[] pdf = renderer.renderPdf(employee, period);
+            stats.renderNanos.add(System.nanoTime() - t0);
+            putUninterruptibly(writeQueue, new Rendered(employee.getId(), html, pdf));
+            queued = true;
+        } catch (Throwable t) {
+            // Errors too (OutOfMemoryError, StackOverflowError): the run must fail, not hang.
+            failure.compareAndSet(null, t);
+        } finally {
+            // Queued items give their permit back once written; anything else must return it here.
+            if (!queued) permits.release();
+        }
+    }
+
+    private void drain(BlockingQueue<Rendered> writeQueue, ZipOutputStream zip, Semaphore permits,
+                       AtomicReference<Throwable> failure, Stats stats) {
+        while (true) {
+            Rendered item;
+            try {
+                item = writeQueue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure.compareAndSet(null, e);
+                return;
+            }
+            if (item == POISON) return;
+            long t0 = System.nanoTime();
+            try {
+                // Keep consuming after a failure so the producer never blocks on permits.
+                if (failure.get() == null) {
+                    writeEntry(zip, "html/payslip-" + item.id + ".html", item.html);
+                    writeEntry(zip, "pdf/payslip-" + item.id + ".pdf", item.pdf);
+                    stats.count.increment();
+                }
+            } catch (Throwable t) {
+                // Not just IOException: if the writer dies the queue stops draining and the run hangs.
+                failure.compareAndSet(null, t);
+            } finally {
+                stats.writeNanos.add(System.nanoTime() - t0);
+                permits.release();
+            }
+        }
+    }
+
+    private static void writeEntry(ZipOutputStream zip, String name, byte[] data) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(data);
+        zip.closeEntry();
+    }
+
+    private static void putUninterruptibly(BlockingQueue<Rendered> queue, Rendered item) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(item);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private static void awaitQuietly(ExecutorService pool) {
+        try {
+            while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                // keep waiting; rendering is CPU-bound and always finishes
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void joinQuietly(Thread t) {
+        try {
+            t.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Aborted extends RuntimeException {
+        Aborted() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class Rendered {
+        final int id;
+        final byte[] html;
+        final byte[] pdf;
+
+        Rendered(int id, byte[] html, byte[] pdf) {
+            this.id = id;
+            this.html = html;
+            this.pdf = pdf;
+        }
+    }
+
+    public static final class Stats {
+        final LongAdder count = new LongAdder();
+        final LongAdder renderNanos = new LongAdder();
+        final LongAdder writeNanos = new LongAdder();
+        long fetchNanos;
+        long wallNanos;
+
+        public long getCount() { return count.sum(); }
+
+        public double getThroughputPerSecond() {
+            return wallNanos == 0 ? 0 : count.sum() / (wallNanos / 1_000_000_000d);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Payslips: %d in %.1f ms (%.1f/s) | fetch %.1f ms, render %.1f ms (cpu, all workers), write %.1f ms",
+                    count.sum(), wallNanos / 1e6, getThroughputPerSecond(),
+                    fetchNanos / 1e6, renderNanos.sum() / 1e6, writeNanos.sum() / 1e6);
+        }
+    }
+}
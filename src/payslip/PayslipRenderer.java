@@ -0,0 +1,146 @@
+package payslip;
+
+import model.Employee;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders a single employee's payslip as HTML and as a minimal single-page PDF.
+ * Stateless and safe to share between worker threads.
+ */
+public class PayslipRenderer {
+
+    private static final String HTML_TEMPLATE =
+            "<!DOCTYPE html>\n"
+            + "<html><head><meta charset=\"utf-8\"><title>Payslip {{period}} - {{name}}</title>\n"
+            + "<style>body{font-family:sans-serif;margin:2em}table{border-collapse:collapse}"
+            + "td{padding:4px 12px;border-bottom:1px solid #ddd}td.amt{text-align:right}</style></head>\n"
+            + "<body>\n"
+            + "<h1>Payslip for {{period}}</h1>\n"
+            + "<p>Employee #{{id}}: <strong>{{name}}</strong>, {{designation}}</p>\n"
+            + "<table>\n"
+            + "<tr><td>Basic Salary</td><td class=\"amt\">{{basic}}</td></tr>\n"
+            + "<tr><td>HRA</td><td class=\"amt\">{{hra}}</td></tr>\n"
+            + "<tr><td>DA</td><td class=\"amt\">{{da}}</td></tr>\n"
+            + "<tr><td>Gross Salary</td><td class=\"amt\">{{gross}}</td></tr>\n"
+            + "<tr><td>Deductions</td><td class=\"amt\">{{deductions}}</td></tr>\n"
+            + "<tr><td><strong>Net Salary</strong></td><td class=\"amt\"><strong>{{net}}</strong></td></tr>\n"
+            + "</table>\n"
+            + "</body></html>\n";
+
+    public byte[] renderHtml(Employee e, String period) {
+        String html = HTML_TEMPLATE
+                .replace("{{period}}", escapeHtml(period))
+                .replace("{{id}}", String.valueOf(e.getId()))
+                .replace("{{name}}", escapeHtml(e.getName()))
+                .replace("{{designation}}", escapeHtml(e.getDesignation()))
+                .replace("{{basic}}", money(e.getBasicSalary()))
+                .replace("{{hra}}", money(e.getHra()))
+                .replace("{{da}}", money(e.getDa()))
+                .replace("{{gross}}", money(e.getGrossSalary()))
+                .replace("{{deductions}}", money(e.getDeductions()))
+                .replace("{{net}}", money(e.getNetSalaryRounded()));
+        return html.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public byte[] renderPdf(Employee e, String period) {
+        List<String> lines = new ArrayList<>();
+        lines.add("Payslip for " + period);
+        lines.add("");
+        lines.add("Employee #" + e.getId() + ": " + e.getName());
+        lines.add("Designation: " + e.getDesignation());
+        lines.add("");
+        lines.add(String.format("%-16s %14s", "Basic Salary", money(e.getBasicSalary())));
+        lines.add(String.format("%-16s %14s", "HRA", money(e.getHra())));
+        lines.add(String.format("%-16s %14s", "DA", money(e.getDa())));
+        lines.add(String.format("%-16s %14s", "Gross Salary", money(e.getGrossSalary())));
+        lines.add(String.format("%-16s %14s", "Deductions", money(e.getDeductions())));
+        lines.add(String.format("%-16s %14s", "Net Salary", money(e.getNetSalaryRounded())));
+        return textPdf(lines);
+    }
+
+    /** Writes a one-page PDF 1.4 document showing the lines in Courier. */
+    private byte[] textPdf(List<String> lines) {
+        StringBuilder content = new StringBuilder();
+        content.append("BT\n/F1 11 Tf\n14 TL\n50 780 Td\n");
+        for (String line : lines) {
+            content.append('(').append(escapePdf(line)).append(") Tj T*\n");
+        }
+        content.append("ET\n");
+        byte[] stream = content.toString().getBytes(StandardCharsets.ISO_8859_1);
+
+        String[] objects = {
+                "<< /Type /Catalog /Pages 2 0 R >>",
+                "<< /Type /Pages /Kids [3 0 R] /Count 1 >>",
+                "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 595 842] "
+                        + "/Resources << /Font << /F1 4 0 R >> >> /Contents 5 0 R >>",
+                "<< /Type /Font /Subtype /Type1 /BaseFont /Courier >>",
+                null
+        };
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024 + stream.length);
+        int[] offsets = new int[objects.length];
+        write(out, "%PDF-1.4\n");
+        for (int i = 0; i < objects.length; i++) {
+            offsets[i] = out.size();
+            write(out, (i + 1) + " 0 obj\n");
+            if (objects[i] != null) {
+                write(out, objects[i] + "\n");
+            } else {
+                write(out, "<< /Length " + stream.length + " >>\nstream\n");
+                out.write(stream, 0, stream.length);
+                write(out, "endstream\n");
+            }
+            write(out, "endobj\n");
+        }
+        int xref = out.size();
+        write(out, "xref\n0 " + (objects.length + 1) + "\n0000000000 65535 f \n");
+        for (int offset : offsets) {
+            write(out, String.format("%010d 00000 n \n", offset));
+        }
+        write(out, "trailer\n<< /Size " + (objects.length + 1) + " /Root 1 0 R >>\nstartxref\n" + xref + "\n%%EOF\n");
+        return out.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream out, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.ISO_8859_1);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String money(BigDecimal n) {
+        return n == null ? "0.00" : n.setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static String escapeHtml(String s) {
+        if (s == null) return "";
+        StringBuilder sb = new StringBuilder(s.length());
+        for (char c : s.toCharArray()) {
+            switch (c) {
+                case '<': sb.append("&lt;"); break;
+                case '>': sb.append("&gt;"); break;
+                case '&': sb.append("&amp;"); break;
+                case '"': sb.append("&quot;"); break;
+                case '\'': sb.append("&#39;"); break;
+                default: sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String escapePdf(String s) {
+        if (s == null) return "";
+        StringBuilder sb = new StringBuilder(s.length());
+        for (char c : s.toCharArray()) {
+            if (c == '(' || c == ')' || c == '\\') sb.append('\\').append(c);
+            // The standard Type1 fonts only cover Latin-1; anything else is replaced.
+            else if (c < 0x20 || c > 0xFF) sb.append('?');
+            else sb.append(c);
+        }
+        return sb.toString();
+    }
+}
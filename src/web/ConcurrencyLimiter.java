@@ -0,0 +1,79 @@
+package web;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Global in-flight limit for DB-bound handlers. Every completion feeds a slow moving average of
+ * latency, and a completion counts as congested when it took more than twice that average. Once per
+ * window (at least {@code limit} completions) the limit shrinks by 10% if most completions in the
+ * window were congested, and otherwise grows by one while the limit is in use. Requiring a majority
+ * keeps a normal mix of cheap lookups and expensive list queries from reading as overload; only a
+ * slowdown across the board (the database is queueing) backs off.
+ */
+public class ConcurrencyLimiter {
+
+    private static final double TOLERANCE = 2.0;
+    private static final double BACKOFF = 0.9;
+    // Roughly the last 20,000 completions, so a sustained slowdown takes thousands of requests to become the norm.
+    private static final double AVERAGE_WEIGHT = 0.00005;
+    private static final int MIN_WINDOW = 20;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+    private double averageNanos = -1;
+    private int windowCompletions;
+    private int windowCongested;
+
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limit bounds");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * @return true if the caller may proceed; it must then call {@link #release(long)}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) return false;
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    public void release(long latencyNanos) {
+        inFlight.decrementAndGet();
+        adjust(latencyNanos);
+    }
+
+    private synchronized void adjust(long latencyNanos) {
+        if (averageNanos < 0) averageNanos = latencyNanos;
+        if (latencyNanos > averageNanos * TOLERANCE) windowCongested++;
+        averageNanos += (latencyNanos - averageNanos) * AVERAGE_WEIGHT;
+
+        // Change the limit at most once per window so each change can take effect.
+        if (++windowCompletions < Math.max(limit, MIN_WINDOW)) return;
+        boolean congested = windowCongested * 2 > windowCompletions;
+        windowCompletions = 0;
+        windowCongested = 0;
+        if (congested) {
+            limit = Math.max(minLimit, (int) (limit * BACKOFF));
+        } else if (inFlight.get() + 1 >= limit / 2) {
+            // Only probe upward when the current limit is actually being used.
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -4,11 +4,15 @@ import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
+import dao.DesignationSummaryDAO;
 import dao.EmployeeDAO;
+import db.DBConnection;
+import model.DesignationSummary;
 import model.Employee;
 
 import java.io.*;
 import java.math.BigDecimal;
+import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URLDecoder;
@@ -16,11 +20,45 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 public class PayrollServer {
 
-    private final EmployeeDAO employeeDAO = new EmployeeDAO();
+    private static final int WARMUP_ROWS = 100;
+
+    private final EmployeeDAO employeeDAO;
+    private final DesignationSummaryDAO summaryDAO;
+    private final RateLimiter rateLimiter;
+    private final boolean pooledDatabase;
+    private final ConcurrencyLimiter dbLimiter = new ConcurrencyLimiter(
+            envInt("DB_CONCURRENCY_LIMIT", 16), 1, envInt("DB_CONCURRENCY_MAX", 64));
+    private final AdmissionStats admissionStats = new AdmissionStats();
+    private final Set<String> apiKeys = loadApiKeys();
+    private volatile boolean ready;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public PayrollServer() {
+        this(new EmployeeDAO(), new DesignationSummaryDAO(),
+                new RateLimiter(envDouble("RATE_LIMIT_RPS", 50), envInt("RATE_LIMIT_BURST", 100)), true);
+    }
+
+    /**
+     * @param pooledDatabase whether the DAOs go through {@link DBConnection}; false for in-memory stand-ins,
+     *                       which skips pre-opening pool connections during warmup
+     */
+    public PayrollServer(EmployeeDAO employeeDAO, DesignationSummaryDAO summaryDAO, RateLimiter rateLimiter, boolean pooledDatabase) {
+        this.employeeDAO = employeeDAO;
+        this.summaryDAO = summaryDAO;
+        this.rateLimiter = rateLimiter;
+        this.pooledDatabase = pooledDatabase;
+    }
 
     public static void main(String[] args) throws IOException {
         int port = 8080;
@@ -29,16 +67,307 @@ public class PayrollServer {
             try { port = Integer.parseInt(envPort); } catch (NumberFormatException ignored) {}
         }
         PayrollServer app = new PayrollServer();
+        if (Arrays.asList(args).contains("--warmup-exit")) {
+            // Training run for the class-data-sharing archive: serve real requests so the HTTP server,
+            // handlers and JDBC classes are all loaded and end up in the archive, then stop.
+            int boundPort = app.start(0);
+            sendTrainingRequests(boundPort, "/ready");
+            app.warmUp(false);
+            sendTrainingRequests(boundPort, "/ready", "/api/employees", "/api/employees/1",
+                    "/api/employees/1?as_of=" + LocalDate.now(), "/api/reports/designations", "/api/admission");
+            app.stop();
+            return;
+        }
         app.start(port);
+        Thread warmup = new Thread(() -> app.warmUp(true), "warmup");
+        warmup.setDaemon(true);
+        warmup.start();
     }
 
-    public void start(int port) throws IOException {
-        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
-        server.createContext("/api/employees", new EmployeeApiHandler(employeeDAO));
+    /**
+     * @return the port actually bound, which differs from {@code port} when it is 0
+     */
+    public int start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/api/employees", admit(new EmployeeApiHandler(employeeDAO)));
+        server.createContext("/api/reports/designations", admit(new DesignationReportHandler(summaryDAO)));
+        server.createContext("/ready", new ReadinessHandler(this));
+        server.createContext("/api/admission", new AdmissionStatsHandler(admissionStats, rateLimiter, dbLimiter));
         server.createContext("/", new StaticFileHandler("public"));
-        server.setExecutor(null);
-        System.out.println("Server started on http://localhost:" + port);
+        // A single dispatcher thread would make the DB concurrency limit meaningless.
+        executor = Executors.newFixedThreadPool(envInt("SERVER_THREADS", 64));
+        server.setExecutor(executor);
+        int boundPort = server.getAddress().getPort();
+        System.out.println("Server started on http://localhost:" + boundPort);
         server.start();
+        return boundPort;
+    }
+
+    public void stop() {
+        if (server != null) server.stop(0);
+        if (executor != null) executor.shutdownNow();
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Pre-opens pool connections, primes the employee and report queries, and runs the JSON encoders
+     * enough times for the JIT to compile them. /ready reports 200 only after this completes.
+     *
+     * @param retryDatabase keep retrying until the database is reachable; otherwise try once and carry on
+     */
+    public void warmUp(boolean retryDatabase) {
+        long start = System.nanoTime();
+        warmJsonEncoding();
+        long backoffMillis = 500;
+        while (true) {
+            try {
+                // Enough connections for the starting concurrency limit; the rest open as the limit grows.
+                if (pooledDatabase) DBConnection.prefill(dbLimiter.getLimit());
+                // A page, not the table: this primes the query path and statement caches, whatever the head count.
+                List<Employee> employees = employeeDAO.getEmployees(WARMUP_ROWS);
+                for (Employee e : employees) JsonUtil.employeeToJson(e);
+                for (DesignationSummary d : summaryDAO.getAllSummaries()) JsonUtil.designationSummaryToJson(d);
+                System.out.println("Warmup: " + (pooledDatabase ? DBConnection.idleCount() : 0) + " pooled connections, " + employees.size() + " employees loaded");
+                break;
+            } catch (SQLException | RuntimeException | LinkageError e) {
+                System.out.println("Warmup: database not reachable (" + e + ")");
+                if (!retryDatabase) break;
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, 10_000);
+            }
+        }
+        ready = true;
+        System.out.printf("Warmup completed in %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static void warmJsonEncoding() {
+        Employee sample = new Employee(1, "Warm \"Up\"\tSample", "Engineer",
+                new BigDecimal("50000.00"), new BigDecimal("12000.50"), new BigDecimal("3000"), new BigDecimal("1500.25"));
+        DesignationSummary summary = new DesignationSummary("Engineer", 3,
+                new BigDecimal("195001.50"), new BigDecimal("190500.75"), new BigDecimal("60000.00"), new BigDecimal("65000.00"));
+        long sink = 0;
+        for (int i = 0; i < 20_000; i++) {
+            sample.setId(i);
+            sink += JsonUtil.employeeToJson(sample).length();
+            sink += JsonUtil.designationSummaryToJson(summary).length();
+        }
+        if (sink == 0) System.out.println("Warmup: JSON encoders produced no output");
+    }
+
+    // Failures are expected when the database is down during a build; the request paths still get loaded.
+    private static void sendTrainingRequests(int port, String... paths) {
+        for (String path : paths) {
+            try {
+                HttpURLConnection conn = (HttpURLConnection) URI.create("http://localhost:" + port + path).toURL().openConnection();
+                int status = conn.getResponseCode();
+                try (InputStream in = status < 400 ? conn.getInputStream() : conn.getErrorStream()) {
+                    if (in != null) in.transferTo(OutputStream.nullOutputStream());
+                }
+                System.out.println("Training: GET " + path + " -> " + status);
+            } catch (IOException e) {
+                System.out.println("Training: GET " + path + " failed (" + e + ")");
+            }
+        }
+    }
+
+    private HttpHandler admit(HttpHandler dbHandler) {
+        return new AdmissionControlHandler(dbHandler, rateLimiter, dbLimiter, admissionStats, apiKeys);
+    }
+
+    /**
+     * Keys allowed to have their own rate-limit bucket: comma-separated in API_KEYS and/or one per
+     * line in the file named by API_KEYS_FILE. Any other X-API-Key value is ignored.
+     */
+    private static Set<String> loadApiKeys() {
+        Set<String> keys = new HashSet<>();
+        String inline = System.getenv("API_KEYS");
+        if (inline != null) {
+            for (String k : inline.split(",")) {
+                if (!k.trim().isEmpty()) keys.add(k.trim());
+            }
+        }
+        String file = System.getenv("API_KEYS_FILE");
+        if (file != null) {
+            try {
+                for (String line : Files.readAllLines(Path.of(file), StandardCharsets.UTF_8)) {
+                    if (!line.trim().isEmpty() && !line.trim().startsWith("#")) keys.add(line.trim());
+                }
+            } catch (IOException e) {
+                System.out.println("Could not read API_KEYS_FILE " + file + ": " + e.getMessage());
+            }
+        }
+        return Collections.unmodifiableSet(keys);
+    }
+
+    private static int envInt(String name, int def) {
+        String v = System.getenv(name);
+        if (v == null) return def;
+        try { return Integer.parseInt(v.trim()); } catch (NumberFormatException e) { return def; }
+    }
+
+    private static double envDouble(String name, double def) {
+        String v = System.getenv(name);
+        if (v == null) return def;
+        try { return Double.parseDouble(v.trim()); } catch (NumberFormatException e) { return def; }
+    }
+
+    static class AdmissionStats {
+        final LongAdder admitted = new LongAdder();
+        final LongAdder rateLimited = new LongAdder();
+        final LongAdder overloaded = new LongAdder();
+    }
+
+    /**
+     * Runs in front of DB-bound handlers: a per-client token bucket (429 when empty) followed by
+     * the global adaptive concurrency limit (503 when saturated). Both rejections carry Retry-After.
+     */
+    static class AdmissionControlHandler implements HttpHandler {
+        private final HttpHandler delegate;
+        private final RateLimiter rateLimiter;
+        private final ConcurrencyLimiter dbLimiter;
+        private final AdmissionStats stats;
+        private final Set<String> apiKeys;
+
+        AdmissionControlHandler(HttpHandler delegate, RateLimiter rateLimiter, ConcurrencyLimiter dbLimiter,
+                                AdmissionStats stats, Set<String> apiKeys) {
+            this.delegate = delegate;
+            this.apiKeys = apiKeys;
+            this.rateLimiter = rateLimiter;
+            this.dbLimiter = dbLimiter;
+            this.stats = stats;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            long waitNanos = rateLimiter.tryAcquire(clientKey(exchange));
+            if (waitNanos > 0) {
+                stats.rateLimited.increment();
+                reject(exchange, 429, "Too Many Requests", Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+                return;
+            }
+            if (!dbLimiter.tryAcquire()) {
+                stats.overloaded.increment();
+                reject(exchange, 503, "Service Unavailable", 1);
+                return;
+            }
+            stats.admitted.increment();
+            long start = System.nanoTime();
+            try {
+                delegate.handle(exchange);
+            } finally {
+                dbLimiter.release(System.nanoTime() - start);
+            }
+        }
+
+        private String clientKey(HttpExchange exchange) {
+            String apiKey = exchange.getRequestHeaders().getFirst("X-API-Key");
+            // Unknown keys share the caller's IP bucket; otherwise rotating keys would dodge the limit.
+            if (apiKey != null && apiKeys.contains(apiKey)) return "key:" + apiKey;
+            InetSocketAddress remote = exchange.getRemoteAddress();
+            return "ip:" + (remote == null || remote.getAddress() == null ? "unknown" : remote.getAddress().getHostAddress());
+        }
+
+        private void reject(HttpExchange exchange, int status, String text, long retryAfterSeconds) throws IOException {
+            try {
+                // Drain without buffering so a flood of rejected uploads costs no heap; keep-alive stays usable.
+                exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+                sendText(exchange, status, text);
+            } finally {
+                exchange.close();
+            }
+        }
+    }
+
+    static class ReadinessHandler implements HttpHandler {
+        private final PayrollServer app;
+
+        ReadinessHandler(PayrollServer app) { this.app = app; }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                if (app.isReady()) {
+                    sendJson(exchange, 200, "{\"status\":\"ready\"}");
+                } else {
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                    sendJson(exchange, 503, "{\"status\":\"warming_up\"}");
+                }
+            } finally {
+                exchange.close();
+            }
+        }
+    }
+
+    static class AdmissionStatsHandler implements HttpHandler {
+        private final AdmissionStats stats;
+        private final RateLimiter rateLimiter;
+        private final ConcurrencyLimiter dbLimiter;
+
+        AdmissionStatsHandler(AdmissionStats stats, RateLimiter rateLimiter, ConcurrencyLimiter dbLimiter) {
+            this.stats = stats;
+            this.rateLimiter = rateLimiter;
+            this.dbLimiter = dbLimiter;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                if (!exchange.getRequestMethod().equals("GET")) {
+                    sendText(exchange, 405, "Method Not Allowed");
+                    return;
+                }
+                String json = "{"
+                        + "\"admitted\":" + stats.admitted.sum() + ','
+                        + "\"rate_limited\":" + stats.rateLimited.sum() + ','
+                        + "\"overloaded\":" + stats.overloaded.sum() + ','
+                        + "\"tracked_clients\":" + rateLimiter.trackedClients() + ','
+                        + "\"db_in_flight\":" + dbLimiter.getInFlight() + ','
+                        + "\"db_limit\":" + dbLimiter.getLimit()
+                        + "}";
+                sendJson(exchange, 200, json);
+            } finally {
+                exchange.close();
+            }
+        }
+    }
+
+    static class DesignationReportHandler implements HttpHandler {
+        private final DesignationSummaryDAO summaryDAO;
+
+        DesignationReportHandler(DesignationSummaryDAO summaryDAO) { this.summaryDAO = summaryDAO; }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                if (!exchange.getRequestMethod().equals("GET")) {
+                    sendText(exchange, 405, "Method Not Allowed");
+                    return;
+                }
+                List<DesignationSummary> summaries = summaryDAO.getAllSummaries();
+                StringBuilder sb = new StringBuilder();
+                sb.append("[");
+                for (int i = 0; i < summaries.size(); i++) {
+                    if (i > 0) sb.append(',');
+                    sb.append(JsonUtil.designationSummaryToJson(summaries.get(i)));
+                }
+                sb.append("]");
+                sendJson(exchange, 200, sb.toString());
+            } catch (Exception e) {
+                e.printStackTrace();
+                sendJson(exchange, 500, "{\"error\":\"" + JsonUtil.escape(e.getMessage()) + "\"}");
+            } finally {
+                exchange.close();
+            }
+        }
     }
 
     static class EmployeeApiHandler implements HttpHandler {
@@ -56,7 +385,7 @@ public class PayrollServer {
 
                 if (path.equals("/api/employees") || path.equals("/api/employees/")) {
                     if (method.equals("GET")) {
-                        handleList(exchange);
+                        handleList(exchange, uri);
                     } else if (method.equals("POST")) {
                         handleCreate(exchange);
                     } else {
@@ -74,7 +403,7 @@ public class PayrollServer {
                     catch (NumberFormatException e) { sendText(exchange, 400, "Invalid ID"); return; }
 
                     if (method.equals("GET")) {
-                        handleGetOne(exchange, id);
+                        handleGetOne(exchange, uri, id);
                     } else if (method.equals("PUT")) {
                         handleUpdate(exchange, id);
                     } else if (method.equals("DELETE")) {
@@ -94,8 +423,18 @@ public class PayrollServer {
             }
         }
 
-        private void handleList(HttpExchange exchange) throws IOException, SQLException {
-            List<Employee> employees = employeeDAO.getAllEmployees();
+        private void handleList(HttpExchange exchange, URI uri) throws IOException, SQLException {
+            String asOfParam = queryParams(uri).get("as_of");
+            List<Employee> employees;
+            if (asOfParam != null) {
+                LocalDate asOf = parseDate(asOfParam);
+                if (asOf == null) { sendText(exchange, 400, "Invalid as_of date, expected YYYY-MM-DD"); return; }
+                List<Employee> snapshot = new ArrayList<>();
+                employeeDAO.streamSnapshotAsOf(asOf, snapshot::add);
+                employees = snapshot;
+            } else {
+                employees = employeeDAO.getAllEmployees();
+            }
             StringBuilder sb = new StringBuilder();
             sb.append("[");
             for (int i = 0; i < employees.size(); i++) {
@@ -106,8 +445,16 @@ public class PayrollServer {
             sendJson(exchange, 200, sb.toString());
         }
 
-        private void handleGetOne(HttpExchange exchange, int id) throws IOException, SQLException {
-            Employee employee = employeeDAO.getEmployeeById(id);
+        private void handleGetOne(HttpExchange exchange, URI uri, int id) throws IOException, SQLException {
+            String asOfParam = queryParams(uri).get("as_of");
+            Employee employee;
+            if (asOfParam != null) {
+                LocalDate asOf = parseDate(asOfParam);
+                if (asOf == null) { sendText(exchange, 400, "Invalid as_of date, expected YYYY-MM-DD"); return; }
+                employee = employeeDAO.getEmployeeAsOf(id, asOf);
+            } else {
+                employee = employeeDAO.getEmployeeById(id);
+            }
             if (employee == null) { sendText(exchange, 404, "Not Found"); return; }
             sendJson(exchange, 200, JsonUtil.employeeToJson(employee));
         }
@@ -162,6 +509,14 @@ public class PayrollServer {
             return parseUrlEncoded(body);
         }
 
+        private Map<String, String> queryParams(URI uri) {
+            return parseUrlEncoded(uri.getRawQuery());
+        }
+
+        private LocalDate parseDate(String s) {
+            try { return LocalDate.parse(s); } catch (DateTimeParseException e) { return null; }
+        }
+
         private Map<String, String> parseUrlEncoded(String body) {
             Map<String, String> params = new HashMap<>();
             if (body == null || body.isEmpty()) return params;
@@ -269,6 +624,20 @@ public class PayrollServer {
             return sb.toString();
         }
 
+        static String designationSummaryToJson(DesignationSummary d) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("{");
+            sb.append("\"designation\":").append(quote(d.getDesignation())).append(',');
+            sb.append("\"employee_count\":").append(d.getEmployeeCount()).append(',');
+            sb.append("\"gross_total\":").append(num(d.getGrossTotal())).append(',');
+            sb.append("\"net_total\":").append(num(d.getNetTotal())).append(',');
+            sb.append("\"average_net\":").append(num(d.getAverageNet())).append(',');
+            sb.append("\"min_net\":").append(num(d.getMinNet())).append(',');
+            sb.append("\"max_net\":").append(num(d.getMaxNet()));
+            sb.append("}");
+            return sb.toString();
+        }
+
         static String num(BigDecimal n) { return n == null ? "0" : n.setScale(2, java.math.RoundingMode.HALF_UP).toPlainString(); }
     }
 
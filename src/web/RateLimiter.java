@@ -0,0 +1,111 @@
+package web;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-client token bucket. Each client key (API key or remote IP) gets its own bucket;
+ * buckets are updated with a CAS loop so concurrent requests never block each other.
+ */
+public class RateLimiter {
+
+    private static final int SWEEP_THRESHOLD = 10_000;
+    private static final int MAX_BUCKETS = 100_000;
+    private static final long SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final double tokensPerNano;
+    private final double burst;
+    private final long idleEvictNanos;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+    // Shared by every new client once the map is full, so memory stays bounded under a flood of addresses.
+    private final Bucket overflow;
+
+    public RateLimiter(double requestsPerSecond, int burst) {
+        if (requestsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.tokensPerNano = requestsPerSecond / 1_000_000_000d;
+        this.burst = burst;
+        // A bucket idle long enough to refill completely carries no state worth keeping.
+        this.idleEvictNanos = (long) (burst / tokensPerNano) + 1_000_000_000L;
+        this.overflow = new Bucket(burst, System.nanoTime());
+    }
+
+    /**
+     * Tries to take one token for the given client.
+     *
+     * @return 0 if the request is admitted, otherwise the number of nanoseconds until a token is available
+     */
+    public long tryAcquire(String clientKey) {
+        long now = System.nanoTime();
+        if (buckets.size() > SWEEP_THRESHOLD) {
+            maybeSweep(now);
+        }
+        Bucket bucket = buckets.get(clientKey);
+        if (bucket == null) {
+            bucket = buckets.size() >= MAX_BUCKETS
+                    ? overflow
+                    : buckets.computeIfAbsent(clientKey, k -> new Bucket(burst, now));
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    public int trackedClients() {
+        return buckets.size();
+    }
+
+    // At most one thread sweeps, and at most once per interval; everyone else goes straight on.
+    private void maybeSweep(long now) {
+        if (now - lastSweep.get() < SWEEP_INTERVAL_NANOS || !sweeping.compareAndSet(false, true)) return;
+        try {
+            lastSweep.set(now);
+            Iterator<Bucket> it = buckets.values().iterator();
+            while (it.hasNext()) {
+                if (now - it.next().state.get().lastRefill > idleEvictNanos) {
+                    it.remove();
+                }
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private final class Bucket {
+        private final AtomicReference<State> state;
+
+        Bucket(double tokens, long now) {
+            this.state = new AtomicReference<>(new State(tokens, now));
+        }
+
+        long tryAcquire(long now) {
+            while (true) {
+                State current = state.get();
+                long elapsed = Math.max(0, now - current.lastRefill);
+                double tokens = Math.min(burst, current.tokens + elapsed * tokensPerNano);
+                if (tokens < 1d) {
+                    return (long) Math.ceil((1d - tokens) / tokensPerNano);
+                }
+                State next = new State(tokens - 1d, Math.max(now, current.lastRefill));
+                if (state.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+
+    private static final class State {
+        final double tokens;
+        final long lastRefill;
+
+        State(double tokens, long lastRefill) {
+            this.tokens = tokens;
+            this.lastRefill = lastRefill;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package web;
+
+/**
+ * Deterministic simulation of a saturated server: every free slot is filled immediately and each
+ * completion reports a fixed latency for its request class, so nothing is actually queueing unless
+ * a scenario says so. Run with {@code java -cp out web.ConcurrencyLimiterTest}; exits non-zero on failure.
+ */
+public class ConcurrencyLimiterTest {
+
+    private static final long MS = 1_000_000L;
+    private static int failures;
+
+    public static void main(String[] args) {
+        cheapExpensiveMixIsNotOverload();
+        rareVeryExpensiveRequestsAreNotOverload();
+        sustainedSlowdownBacksOffAndHolds();
+        if (failures > 0) {
+            System.out.println(failures + " check(s) failed");
+            System.exit(1);
+        }
+        System.out.println("ConcurrencyLimiterTest passed");
+    }
+
+    static void cheapExpensiveMixIsNotOverload() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(16, 1, 64);
+        Saturated sim = new Saturated(limiter);
+        // Every 10th request costs 50x the others.
+        int[] range = sim.run(200_000, i -> i % 10 == 0 ? 50 * MS : MS);
+        check(range[0] >= 16, "10% at 50x: limit fell to " + range[0]);
+        check(limiter.getLimit() == 64, "10% at 50x: limit ended at " + limiter.getLimit());
+    }
+
+    static void rareVeryExpensiveRequestsAreNotOverload() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(16, 1, 64);
+        Saturated sim = new Saturated(limiter);
+        int[] range = sim.run(200_000, i -> i % 50 == 0 ? 100 * MS : MS);
+        check(range[0] >= 16, "2% at 100x: limit fell to " + range[0]);
+        check(limiter.getLimit() == 64, "2% at 100x: limit ended at " + limiter.getLimit());
+    }
+
+    static void sustainedSlowdownBacksOffAndHolds() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(16, 1, 64);
+        Saturated sim = new Saturated(limiter);
+        sim.run(50_000, i -> i % 10 == 0 ? 5 * MS : MS);
+        check(limiter.getLimit() == 64, "warm-up: limit ended at " + limiter.getLimit());
+
+        // Everything becomes 10x slower.
+        sim.run(1_500, i -> i % 10 == 0 ? 50 * MS : 10 * MS);
+        check(limiter.getLimit() <= 8, "slowdown: limit only fell to " + limiter.getLimit());
+        int[] held = sim.run(3_000, i -> i % 10 == 0 ? 50 * MS : 10 * MS);
+        check(held[1] <= 16, "slowdown: limit climbed back to " + held[1]);
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) {
+            failures++;
+            System.out.println("FAIL: " + message);
+        }
+    }
+
+    interface Latency {
+        long of(long requestIndex);
+    }
+
+    private static final class Saturated {
+        private final ConcurrencyLimiter limiter;
+        private int held;
+        private long issued;
+
+        Saturated(ConcurrencyLimiter limiter) {
+            this.limiter = limiter;
+        }
+
+        /** @return the lowest and highest limit seen during the run */
+        int[] run(int completions, Latency latency) {
+            int min = Integer.MAX_VALUE;
+            int max = 0;
+            for (int i = 0; i < completions; i++) {
+                while (limiter.tryAcquire()) held++;
+                limiter.release(latency.of(issued++));
+                held--;
+                min = Math.min(min, limiter.getLimit());
+                max = Math.max(max, limiter.getLimit());
+            }
+            return new int[]{min, max};
+        }
+    }
+}